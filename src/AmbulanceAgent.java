@@ -32,6 +32,8 @@ public class AmbulanceAgent extends VehicleAgent {
         isEmergencyActive = false;
         patientCriticalLevel = 5;
         emergencyCount = 0;
+        vehicleId = VehicleStateTable.register(getLocalName());
+        reportState();
         
         addBehaviour(new AmbulanceMoveBehaviour(this, 800));
         addBehaviour(new AmbulanceReceiveBehaviour());
@@ -99,9 +101,18 @@ public class AmbulanceAgent extends VehicleAgent {
                     completeEmergency();
                 }
             }
+            reportState();
         }
     }
     
+    protected int stateFlags() {
+        int flags = super.stateFlags();
+        if (isEmergencyActive) {
+            flags |= VehicleStateTable.EMERGENCY;
+        }
+        return flags;
+    }
+    
     private void completeEmergency() {
         long emergencyDuration = (System.currentTimeMillis() - emergencyStartTime) / 1000;
         isEmergencyActive = false;
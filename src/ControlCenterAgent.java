@@ -3,6 +3,7 @@ import jade.core.AID;
 import jade.lang.acl.ACLMessage;
 import jade.wrapper.AgentContainer;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ControlCenterAgent extends Agent {
     
@@ -11,6 +12,8 @@ public class ControlCenterAgent extends Agent {
     private boolean emergencyInProgress;
     private int totalVehicles;
     private int vehiclesArrived;
+    private AtomicInteger phaseChanges;
+    private LightStateListener phaseListener;
     
     protected void setup() {
         System.out.println("\n===========================================");
@@ -22,6 +25,16 @@ public class ControlCenterAgent extends Agent {
         emergencyInProgress = false;
         totalVehicles = 4; 
         vehiclesArrived = 0;
+        phaseChanges = new AtomicInteger();
+        
+        phaseListener = new LightStateListener() {
+            public void onPhaseChange(int intersectionX, int intersectionY, LightPhase oldPhase, LightPhase newPhase) {
+                if (oldPhase != null && newPhase != null) {
+                    phaseChanges.incrementAndGet();
+                }
+            }
+        };
+        LightStateTable.subscribe(phaseListener);
         
         addBehaviour(new ReceiveEmergencyBehaviour());
     }
@@ -66,6 +79,7 @@ public class ControlCenterAgent extends Agent {
             String startPos = parts[1];
             String endPos = parts[2];
             System.out.println("Route: " + startPos + " -> " + endPos);
+            notifyStatePublisher("INCIDENT_START:" + totalEmergencies + ":" + startPos + ":" + endPos);
         }
         
         giveTrafficLightsPriority();
@@ -86,6 +100,7 @@ public class ControlCenterAgent extends Agent {
             System.out.println("Response time: " + responseTime + " seconds");
         }
         
+        notifyStatePublisher("INCIDENT_END:" + totalEmergencies);
         clearTrafficLightsPriority();
         notifyVehiclesToResume();
         displayStatistics();
@@ -133,6 +148,13 @@ public class ControlCenterAgent extends Agent {
         System.out.println("Control Center: Vehicles instructed to resume");
     }
     
+    private void notifyStatePublisher(String content) {
+        ACLMessage message = new ACLMessage(ACLMessage.INFORM);
+        message.addReceiver(new AID("StatePublisher", AID.ISLOCALNAME));
+        message.setContent(content);
+        send(message);
+    }
+    
     private void displayStatistics() {
         System.out.println("\n--- TRAFFIC CONTROL CENTER STATISTICS ---");
         System.out.println("Total emergencies handled: " + totalEmergencies);
@@ -146,11 +168,25 @@ public class ControlCenterAgent extends Agent {
             System.out.println("Average response time: " + average + " seconds");
         }
         System.out.println("Vehicles arrived: " + vehiclesArrived + "/" + totalVehicles);
+        displayLightStates();
         System.out.println("------------------------------------------\n");
         
         checkSimulationComplete();
     }
     
+    private void displayLightStates() {
+        for (int y = 0; y < LightStateTable.GRID_SIZE; y++) {
+            for (int x = 0; x < LightStateTable.GRID_SIZE; x++) {
+                LightPhase phase = LightStateTable.getPhase(x, y);
+                if (phase != null) {
+                    String priority = LightStateTable.isPriority(x, y) ? " (priority)" : "";
+                    System.out.println("Light (" + x + "," + y + "): " + phase + ", "
+                        + LightStateTable.getRemainingTicks(x, y) + "s remaining" + priority);
+                }
+            }
+        }
+    }
+    
     private void handleVehicleArrival() {
         vehiclesArrived++;
         System.out.println("Control Center: Vehicle arrived (" + vehiclesArrived + "/" + totalVehicles + ")");
@@ -185,6 +221,7 @@ public class ControlCenterAgent extends Agent {
         
         System.out.println("Total vehicles: " + totalVehicles);
         System.out.println("Vehicles arrived: " + vehiclesArrived);
+        System.out.println("Light phase changes: " + phaseChanges.get());
         System.out.println("======================================\n");
     }
     
@@ -204,6 +241,7 @@ public class ControlCenterAgent extends Agent {
     }
     
     protected void takeDown() {
+        LightStateTable.unsubscribe(phaseListener);
         System.out.println("\nTraffic Control Center shutting down.");
     }
 }
\ No newline at end of file
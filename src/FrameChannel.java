@@ -0,0 +1,107 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes length-prefixed frames to one output on its own daemon thread.
+ * The publisher never waits on a consumer: when the queue is full the frame
+ * is dropped and the channel skips deltas until the next keyframe, so a slow
+ * consumer only loses detail and always resynchronises on a full snapshot.
+ */
+public class FrameChannel {
+    
+    private final String name;
+    private final DataOutputStream out;
+    private final BlockingQueue<byte[]> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+    private boolean awaitingKeyframe;
+    private long droppedFrames;
+    
+    public FrameChannel(String name, OutputStream stream, int capacity) {
+        this.name = name;
+        this.out = new DataOutputStream(new BufferedOutputStream(stream));
+        this.queue = new ArrayBlockingQueue<byte[]>(capacity);
+        this.awaitingKeyframe = true;
+        
+        writer = new Thread(new Runnable() {
+            public void run() {
+                writeLoop();
+            }
+        }, "FrameChannel-" + name);
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * Queues a frame without blocking. Called only from the publisher thread.
+     */
+    public void offer(byte[] frame, boolean keyframe) {
+        if (closed) {
+            return;
+        }
+        if (awaitingKeyframe && !keyframe) {
+            return;
+        }
+        
+        if (queue.offer(frame)) {
+            awaitingKeyframe = false;
+        } else {
+            if (!awaitingKeyframe) {
+                System.out.println("State stream " + name + " fell behind, dropping frames until the next keyframe");
+            }
+            awaitingKeyframe = true;
+            droppedFrames++;
+        }
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    public void close() {
+        if (droppedFrames > 0) {
+            System.out.println("State stream " + name + " dropped " + droppedFrames + " frames");
+        }
+        closed = true;
+        writer.interrupt();
+    }
+    
+    private void writeLoop() {
+        try {
+            try {
+                while (!closed) {
+                    write(queue.take());
+                }
+            } catch (InterruptedException e) {
+                // closed by the publisher, drain what is already queued
+            }
+            
+            byte[] frame;
+            while ((frame = queue.poll()) != null) {
+                write(frame);
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("State stream " + name + " closed: " + e.getMessage());
+        } finally {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                // nothing left to do
+            }
+        }
+    }
+    
+    private void write(byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+        if (queue.isEmpty()) {
+            out.flush();
+        }
+    }
+}
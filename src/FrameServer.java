@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Accepts local viewers on a loopback port and fans frames out to them,
+ * each through its own FrameChannel so one slow viewer cannot hold up
+ * the others or the simulation.
+ */
+public class FrameServer {
+    
+    private final ServerSocket serverSocket;
+    private final int queueCapacity;
+    private final CopyOnWriteArrayList<FrameChannel> clients = new CopyOnWriteArrayList<FrameChannel>();
+    private final Thread acceptor;
+    
+    public FrameServer(int port, int queueCapacity) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.queueCapacity = queueCapacity;
+        
+        acceptor = new Thread(new Runnable() {
+            public void run() {
+                acceptLoop();
+            }
+        }, "FrameServer-" + port);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    
+    public void offer(byte[] frame, boolean keyframe) {
+        for (FrameChannel client : clients) {
+            if (client.isClosed()) {
+                clients.remove(client);
+            } else {
+                client.offer(frame, keyframe);
+            }
+        }
+    }
+    
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        for (FrameChannel client : clients) {
+            client.close();
+        }
+        clients.clear();
+    }
+    
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(new FrameChannel(socket.getRemoteSocketAddress().toString(),
+                    socket.getOutputStream(), queueCapacity));
+                System.out.println("State stream viewer connected from " + socket.getRemoteSocketAddress());
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("State stream accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
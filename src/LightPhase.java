@@ -0,0 +1,27 @@
+public enum LightPhase {
+    
+    RED(5),
+    GREEN(5),
+    YELLOW(2);
+    
+    private final int duration;
+    
+    LightPhase(int duration) {
+        this.duration = duration;
+    }
+    
+    public int getDuration() {
+        return duration;
+    }
+    
+    public LightPhase next() {
+        switch (this) {
+            case RED:
+                return GREEN;
+            case GREEN:
+                return YELLOW;
+            default:
+                return RED;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+public interface LightStateListener {
+    
+    /**
+     * Called on the publishing light's thread whenever the phase at an
+     * intersection flips. Implementations must not block.
+     *
+     * A light's first publish is reported with a null oldPhase and its
+     * removal with a null newPhase.
+     */
+    void onPhaseChange(int intersectionX, int intersectionY, LightPhase oldPhase, LightPhase newPhase);
+}
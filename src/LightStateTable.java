@@ -0,0 +1,124 @@
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Platform-wide snapshot of every traffic light, indexed by intersection.
+ * Lights publish into it on each tick; any agent in the same JVM can read it
+ * without exchanging messages.
+ *
+ * Each slot packs the whole light state into a single long so that a read
+ * always sees a consistent phase / remaining time pair:
+ *   bits  0-31  remaining ticks in the current phase
+ *   bits 32-39  phase ordinal + 1 (0 means no light at this intersection)
+ *   bit  40     priority mode
+ */
+public final class LightStateTable {
+    
+    public static final int GRID_SIZE = 64;
+    
+    private static final long REMAINING_MASK = 0xFFFFFFFFL;
+    private static final int PHASE_SHIFT = 32;
+    private static final long PHASE_MASK = 0xFFL;
+    private static final long PRIORITY_BIT = 1L << 40;
+    private static final LightPhase[] PHASES = LightPhase.values();
+    
+    private static final AtomicLongArray slots = new AtomicLongArray(GRID_SIZE * GRID_SIZE);
+    private static final CopyOnWriteArrayList<LightStateListener> listeners = new CopyOnWriteArrayList<LightStateListener>();
+    
+    private LightStateTable() {
+    }
+    
+    /**
+     * Lights outside the grid are ignored; callers can check isOnGrid first.
+     */
+    public static void publish(int x, int y, LightPhase phase, int remainingTicks, boolean priority) {
+        int index = indexOf(x, y);
+        if (index < 0) {
+            return;
+        }
+        
+        long value = ((long) (phase.ordinal() + 1) << PHASE_SHIFT) | (Math.max(remainingTicks, 0) & REMAINING_MASK);
+        if (priority) {
+            value |= PRIORITY_BIT;
+        }
+        
+        LightPhase oldPhase = decodePhase(slots.getAndSet(index, value));
+        if (oldPhase != phase) {
+            fireChange(x, y, oldPhase, phase);
+        }
+    }
+    
+    public static void clear(int x, int y) {
+        int index = indexOf(x, y);
+        if (index < 0) {
+            return;
+        }
+        
+        LightPhase oldPhase = decodePhase(slots.getAndSet(index, 0L));
+        if (oldPhase != null) {
+            fireChange(x, y, oldPhase, null);
+        }
+    }
+    
+    /**
+     * Returns the current phase at the intersection, or null if no light
+     * has published there.
+     */
+    public static LightPhase getPhase(int x, int y) {
+        int index = indexOf(x, y);
+        return index < 0 ? null : decodePhase(slots.get(index));
+    }
+    
+    public static int getRemainingTicks(int x, int y) {
+        int index = indexOf(x, y);
+        return index < 0 ? 0 : (int) (slots.get(index) & REMAINING_MASK);
+    }
+    
+    public static boolean isPriority(int x, int y) {
+        int index = indexOf(x, y);
+        return index >= 0 && (slots.get(index) & PRIORITY_BIT) != 0;
+    }
+    
+    public static long getRaw(int x, int y) {
+        int index = indexOf(x, y);
+        return index < 0 ? 0L : slots.get(index);
+    }
+    
+    public static LightPhase decodePhase(long value) {
+        int code = (int) ((value >>> PHASE_SHIFT) & PHASE_MASK);
+        return code == 0 ? null : PHASES[code - 1];
+    }
+    
+    public static boolean decodePriority(long value) {
+        return (value & PRIORITY_BIT) != 0;
+    }
+    
+    public static boolean isOnGrid(int x, int y) {
+        return indexOf(x, y) >= 0;
+    }
+    
+    public static void subscribe(LightStateListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+    
+    public static void unsubscribe(LightStateListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private static void fireChange(int x, int y, LightPhase oldPhase, LightPhase newPhase) {
+        for (LightStateListener listener : listeners) {
+            try {
+                listener.onPhaseChange(x, y, oldPhase, newPhase);
+            } catch (RuntimeException e) {
+                System.out.println("Light state listener failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static int indexOf(int x, int y) {
+        if (x < 0 || y < 0 || x >= GRID_SIZE || y >= GRID_SIZE) {
+            return -1;
+        }
+        return y * GRID_SIZE + x;
+    }
+}
@@ -28,6 +28,13 @@ public class MainLauncher {
             );
             controlCenter.start();
             
+            AgentController statePublisher = mainContainer.createNewAgent(
+                "StatePublisher", 
+                "StatePublisherAgent", 
+                new Object[]{7070, "state-stream.bin", 10}
+            );
+            statePublisher.start();
+            
             Thread.sleep(500);
             
             
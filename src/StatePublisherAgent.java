@@ -0,0 +1,272 @@
+import jade.core.Agent;
+import jade.core.behaviours.TickerBehaviour;
+import jade.lang.acl.ACLMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streams the simulation to external viewers. Once per tick it emits only
+ * what changed since the previous tick (vehicle moves, light phase and
+ * priority changes, incident state), with a full keyframe every few ticks so
+ * late or lagging viewers can resynchronise. Frames go to a loopback socket
+ * and a file.
+ *
+ * Each frame is an int length followed by:
+ *   byte  type ('K' keyframe, 'D' delta), int tick, long timestamp millis
+ *   int   name count,    then {int id, UTF name}
+ *   int   vehicle count, then {int id, short x, short y, byte flags}
+ *   int   light count,   then {short x, short y, byte phase, byte priority}
+ *   byte  incident present, then {byte active, int emergencies,
+ *                                  short startX, short startY, short endX, short endY}
+ *
+ * Vehicle flags are the VehicleStateTable flags plus REMOVED. Light phase is
+ * the LightPhase ordinal + 1, or 0 if the light was removed.
+ */
+public class StatePublisherAgent extends Agent {
+    
+    public static final int REMOVED = 0x80;
+    
+    private static final int QUEUE_CAPACITY = 64;
+    
+    private int port;
+    private String filePath;
+    private int keyframeInterval;
+    private FrameServer server;
+    private FrameChannel fileChannel;
+    
+    private int tick;
+    private long[] lastVehicles;
+    private int[] changedVehicles;
+    private int[] namedVehicles;
+    private long[] lastLights;
+    private int[] changedLights;
+    
+    private boolean incidentActive;
+    private int incidentCount;
+    private int[] incidentRoute;
+    private boolean incidentDirty;
+    
+    private ByteArrayOutputStream frameBuffer;
+    private DataOutputStream frameOut;
+    
+    protected void setup() {
+        Object[] args = getArguments();
+        if (args != null && args.length >= 3) {
+            port = Integer.parseInt(args[0].toString());
+            filePath = args[1].toString();
+            keyframeInterval = Integer.parseInt(args[2].toString());
+        } else {
+            port = 7070;
+            filePath = "state-stream.bin";
+            keyframeInterval = 10;
+        }
+        if (keyframeInterval < 1) {
+            System.out.println("Invalid keyframe interval " + keyframeInterval + ", using 10");
+            keyframeInterval = 10;
+        }
+        
+        tick = 0;
+        lastVehicles = new long[0];
+        changedVehicles = new int[0];
+        namedVehicles = new int[0];
+        lastLights = new long[LightStateTable.GRID_SIZE * LightStateTable.GRID_SIZE];
+        changedLights = new int[lastLights.length];
+        incidentRoute = new int[4];
+        frameBuffer = new ByteArrayOutputStream(4096);
+        frameOut = new DataOutputStream(frameBuffer);
+        
+        try {
+            server = new FrameServer(port, QUEUE_CAPACITY);
+            System.out.println("State stream listening on localhost:" + port);
+        } catch (IOException e) {
+            System.out.println("State stream socket unavailable: " + e.getMessage());
+        }
+        
+        try {
+            fileChannel = new FrameChannel(filePath, new FileOutputStream(filePath), QUEUE_CAPACITY);
+            System.out.println("State stream recording to " + filePath);
+        } catch (IOException e) {
+            System.out.println("State stream file unavailable: " + e.getMessage());
+        }
+        
+        addBehaviour(new PublishBehaviour(this, 1000));
+        addBehaviour(new ReceiveIncidentBehaviour());
+    }
+    
+    private class PublishBehaviour extends TickerBehaviour {
+        
+        public PublishBehaviour(Agent a, long period) {
+            super(a, period);
+        }
+        
+        protected void onTick() {
+            tick++;
+            boolean keyframe = (tick - 1) % keyframeInterval == 0;
+            
+            byte[] frame = encodeFrame(keyframe);
+            if (frame == null) {
+                return;
+            }
+            
+            if (server != null) {
+                server.offer(frame, keyframe);
+            }
+            if (fileChannel != null) {
+                fileChannel.offer(frame, keyframe);
+            }
+        }
+    }
+    
+    private class ReceiveIncidentBehaviour extends jade.core.behaviours.CyclicBehaviour {
+        
+        public void action() {
+            ACLMessage message = receive();
+            if (message != null) {
+                String content = message.getContent();
+                
+                if (content != null && content.startsWith("INCIDENT_START")) {
+                    handleIncidentStart(content);
+                } else if (content != null && content.startsWith("INCIDENT_END")) {
+                    handleIncidentEnd(content);
+                }
+            } else {
+                block();
+            }
+        }
+    }
+    
+    private void handleIncidentStart(String messageContent) {
+        String[] parts = messageContent.split(":");
+        if (parts.length >= 4) {
+            incidentCount = Integer.parseInt(parts[1]);
+            String[] start = parts[2].split(",");
+            String[] end = parts[3].split(",");
+            incidentRoute[0] = Integer.parseInt(start[0]);
+            incidentRoute[1] = Integer.parseInt(start[1]);
+            incidentRoute[2] = Integer.parseInt(end[0]);
+            incidentRoute[3] = Integer.parseInt(end[1]);
+        }
+        incidentActive = true;
+        incidentDirty = true;
+    }
+    
+    private void handleIncidentEnd(String messageContent) {
+        String[] parts = messageContent.split(":");
+        if (parts.length >= 2) {
+            incidentCount = Integer.parseInt(parts[1]);
+        }
+        incidentActive = false;
+        incidentDirty = true;
+    }
+    
+    private byte[] encodeFrame(boolean keyframe) {
+        int changedCount = 0;
+        int namedCount = 0;
+        int size = VehicleStateTable.size();
+        if (lastVehicles.length < size) {
+            int capacity = Math.min(Math.max(size, lastVehicles.length * 2), VehicleStateTable.CAPACITY);
+            lastVehicles = Arrays.copyOf(lastVehicles, capacity);
+            changedVehicles = new int[capacity];
+            namedVehicles = new int[capacity];
+        }
+        
+        for (int id = 0; id < size; id++) {
+            long raw = VehicleStateTable.getRaw(id);
+            long previous = lastVehicles[id];
+            boolean present = VehicleStateTable.isPresent(raw);
+            
+            if (keyframe ? present : raw != previous) {
+                changedVehicles[changedCount++] = id;
+                if (present && (keyframe || !VehicleStateTable.isPresent(previous))) {
+                    namedVehicles[namedCount++] = id;
+                }
+            }
+            lastVehicles[id] = raw;
+        }
+        
+        int changedLightCount = 0;
+        for (int y = 0; y < LightStateTable.GRID_SIZE; y++) {
+            for (int x = 0; x < LightStateTable.GRID_SIZE; x++) {
+                int index = y * LightStateTable.GRID_SIZE + x;
+                long raw = LightStateTable.getRaw(x, y);
+                long previous = lastLights[index];
+                boolean changed = LightStateTable.decodePhase(raw) != LightStateTable.decodePhase(previous)
+                    || LightStateTable.decodePriority(raw) != LightStateTable.decodePriority(previous);
+                
+                if (keyframe ? LightStateTable.decodePhase(raw) != null : changed) {
+                    changedLights[changedLightCount++] = index;
+                }
+                lastLights[index] = raw;
+            }
+        }
+        
+        boolean writeIncident = keyframe || incidentDirty;
+        if (changedCount == 0 && changedLightCount == 0 && !writeIncident) {
+            return null;
+        }
+        
+        try {
+            frameBuffer.reset();
+            frameOut.writeByte(keyframe ? 'K' : 'D');
+            frameOut.writeInt(tick);
+            frameOut.writeLong(System.currentTimeMillis());
+            
+            frameOut.writeInt(namedCount);
+            for (int i = 0; i < namedCount; i++) {
+                int id = namedVehicles[i];
+                frameOut.writeInt(id);
+                frameOut.writeUTF(VehicleStateTable.getName(id));
+            }
+            
+            frameOut.writeInt(changedCount);
+            for (int i = 0; i < changedCount; i++) {
+                int id = changedVehicles[i];
+                long raw = lastVehicles[id];
+                frameOut.writeInt(id);
+                frameOut.writeShort(VehicleStateTable.decodeX(raw));
+                frameOut.writeShort(VehicleStateTable.decodeY(raw));
+                frameOut.writeByte(VehicleStateTable.isPresent(raw) ? VehicleStateTable.decodeFlags(raw) : REMOVED);
+            }
+            
+            frameOut.writeInt(changedLightCount);
+            for (int i = 0; i < changedLightCount; i++) {
+                int index = changedLights[i];
+                long raw = lastLights[index];
+                LightPhase phase = LightStateTable.decodePhase(raw);
+                frameOut.writeShort(index % LightStateTable.GRID_SIZE);
+                frameOut.writeShort(index / LightStateTable.GRID_SIZE);
+                frameOut.writeByte(phase == null ? 0 : phase.ordinal() + 1);
+                frameOut.writeByte(LightStateTable.decodePriority(raw) ? 1 : 0);
+            }
+            
+            frameOut.writeByte(writeIncident ? 1 : 0);
+            if (writeIncident) {
+                frameOut.writeByte(incidentActive ? 1 : 0);
+                frameOut.writeInt(incidentCount);
+                for (int coordinate : incidentRoute) {
+                    frameOut.writeShort(coordinate);
+                }
+                incidentDirty = false;
+            }
+            
+            frameOut.flush();
+        } catch (IOException e) {
+            System.out.println("State stream encoding failed: " + e.getMessage());
+            return null;
+        }
+        return frameBuffer.toByteArray();
+    }
+    
+    protected void takeDown() {
+        if (server != null) {
+            server.close();
+        }
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+        System.out.println("State publisher " + getLocalName() + " terminating.");
+    }
+}
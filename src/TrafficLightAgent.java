@@ -7,7 +7,7 @@ public class TrafficLightAgent extends Agent {
     
     private int intersectionX;
     private int intersectionY;
-    private String currentColor;
+    private LightPhase currentColor;
     private int colorTimer;
     private boolean priorityMode;
     
@@ -24,11 +24,16 @@ public class TrafficLightAgent extends Agent {
             intersectionY = 5;
         }
         
-        currentColor = "RED";
+        currentColor = LightPhase.RED;
         colorTimer = 0;
         priorityMode = false;
+        publishState();
         
         System.out.println("Traffic Light at intersection (" + intersectionX + "," + intersectionY + ")");
+        if (!LightStateTable.isOnGrid(intersectionX, intersectionY)) {
+            System.out.println("Warning: intersection (" + intersectionX + "," + intersectionY
+                + ") is outside the light state grid, other agents will not see this light");
+        }
         
         
         addBehaviour(new ColorCycleBehaviour(this, 1000));
@@ -48,26 +53,19 @@ public class TrafficLightAgent extends Agent {
             if (!priorityMode) {
                 colorTimer++;
                 
-                if (currentColor.equals("GREEN") && colorTimer >= 5) {
-                    currentColor = "YELLOW";
-                    colorTimer = 0;
-                    System.out.println(getLocalName() + " is now YELLOW");
-                } else if (currentColor.equals("YELLOW") && colorTimer >= 2) {
-                    currentColor = "RED";
-                    colorTimer = 0;
-                    System.out.println(getLocalName() + " is now RED");
-                } else if (currentColor.equals("RED") && colorTimer >= 5) {
-                    currentColor = "GREEN";
+                if (colorTimer >= currentColor.getDuration()) {
+                    currentColor = currentColor.next();
                     colorTimer = 0;
-                    System.out.println(getLocalName() + " is now GREEN");
+                    System.out.println(getLocalName() + " is now " + currentColor);
                 }
             } else {
                 
-                if (!currentColor.equals("GREEN")) {
-                    currentColor = "GREEN";
+                if (currentColor != LightPhase.GREEN) {
+                    currentColor = LightPhase.GREEN;
                     System.out.println(getLocalName() + " PRIORITY MODE - GREEN");
                 }
             }
+            publishState();
         }
     }
     
@@ -93,7 +91,8 @@ public class TrafficLightAgent extends Agent {
     
     private void activatePriorityMode() {
         priorityMode = true;
-        currentColor = "GREEN";
+        currentColor = LightPhase.GREEN;
+        publishState();
         System.out.println("*** " + getLocalName() + " PRIORITY MODE ACTIVATED ***");
         
         
@@ -107,10 +106,17 @@ public class TrafficLightAgent extends Agent {
     private void deactivatePriorityMode() {
         priorityMode = false;
         colorTimer = 0;
+        publishState();
         System.out.println(getLocalName() + " returning to normal cycle");
     }
     
+    private void publishState() {
+        int remaining = priorityMode ? 0 : currentColor.getDuration() - colorTimer;
+        LightStateTable.publish(intersectionX, intersectionY, currentColor, remaining, priorityMode);
+    }
+    
     protected void takeDown() {
+        LightStateTable.clear(intersectionX, intersectionY);
         System.out.println("Traffic Light " + getLocalName() + " terminating.");
     }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ public class VehicleAgent extends Agent {
     protected int currentSpeed;
     protected boolean shouldStop;
     protected boolean hasArrived;
+    protected int vehicleId;
     
     protected void setup() {
         System.out.println("Vehicle " + getLocalName() + " is ready.");
@@ -32,6 +33,8 @@ public class VehicleAgent extends Agent {
         currentSpeed = 1;
         shouldStop = false;
         hasArrived = false;
+        vehicleId = VehicleStateTable.register(getLocalName());
+        reportState();
         
         addBehaviour(new MoveBehaviour(this, 1000));
         addBehaviour(new ReceiveMessageBehaviour());
@@ -49,18 +52,30 @@ public class VehicleAgent extends Agent {
             }
             
             if (!shouldStop) {
+                int nextX = positionX;
+                int nextY = positionY;
+                
                 if (positionX < destinationX) {
-                    positionX = Math.min(positionX + currentSpeed, destinationX);
+                    nextX = Math.min(positionX + currentSpeed, destinationX);
                 } else if (positionX > destinationX) {
-                    positionX = Math.max(positionX - currentSpeed, destinationX);
+                    nextX = Math.max(positionX - currentSpeed, destinationX);
                 }
                 
                 if (positionY < destinationY) {
-                    positionY = Math.min(positionY + currentSpeed, destinationY);
+                    nextY = Math.min(positionY + currentSpeed, destinationY);
                 } else if (positionY > destinationY) {
-                    positionY = Math.max(positionY - currentSpeed, destinationY);
+                    nextY = Math.max(positionY - currentSpeed, destinationY);
+                }
+                
+                if (isLightBlocking(nextX, nextY)) {
+                    System.out.println(getLocalName() + " waiting at " + LightStateTable.getPhase(nextX, nextY)
+                        + " light (" + nextX + "," + nextY + ")");
+                    return;
                 }
                 
+                positionX = nextX;
+                positionY = nextY;
+                
                 System.out.println(getLocalName() + " at position (" + positionX + "," + positionY + ")");
                 
                 if (positionX == destinationX && positionY == destinationY) {
@@ -75,7 +90,28 @@ public class VehicleAgent extends Agent {
             } else {
                 System.out.println(getLocalName() + " is stopped (waiting)");
             }
+            reportState();
+        }
+    }
+    
+    protected void reportState() {
+        VehicleStateTable.update(vehicleId, positionX, positionY, stateFlags());
+    }
+    
+    protected int stateFlags() {
+        int flags = 0;
+        if (shouldStop) {
+            flags |= VehicleStateTable.STOPPED;
         }
+        if (hasArrived) {
+            flags |= VehicleStateTable.ARRIVED;
+        }
+        return flags;
+    }
+    
+    protected boolean isLightBlocking(int x, int y) {
+        LightPhase phase = LightStateTable.getPhase(x, y);
+        return phase != null && phase != LightPhase.GREEN;
     }
     
     private class ReceiveMessageBehaviour extends jade.core.behaviours.CyclicBehaviour {
@@ -113,6 +149,7 @@ public class VehicleAgent extends Agent {
     }
     
     protected void takeDown() {
+        VehicleStateTable.remove(vehicleId);
         System.out.println("Vehicle " + getLocalName() + " terminating.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Platform-wide snapshot of vehicle positions, indexed by an id handed out
+ * at registration. Vehicles write their own slot on every move; readers such
+ * as the live state publisher scan it without exchanging messages.
+ *
+ * Each slot packs the vehicle state into a single long:
+ *   bits  0-15  x position
+ *   bits 16-31  y position
+ *   bits 32-39  flags (STOPPED, ARRIVED, EMERGENCY)
+ *   bit  40     slot in use
+ */
+public final class VehicleStateTable {
+    
+    public static final int CAPACITY = 131072;
+    
+    public static final int STOPPED = 1;
+    public static final int ARRIVED = 2;
+    public static final int EMERGENCY = 4;
+    
+    private static final long COORD_MASK = 0xFFFFL;
+    private static final int Y_SHIFT = 16;
+    private static final int FLAGS_SHIFT = 32;
+    private static final long FLAGS_MASK = 0xFFL;
+    private static final long PRESENT_BIT = 1L << 40;
+    
+    private static final AtomicLongArray slots = new AtomicLongArray(CAPACITY);
+    private static final AtomicReferenceArray<String> names = new AtomicReferenceArray<String>(CAPACITY);
+    private static final AtomicInteger nextId = new AtomicInteger();
+    
+    private VehicleStateTable() {
+    }
+    
+    /**
+     * Returns the id for the vehicle, or -1 if the table is full.
+     */
+    public static int register(String name) {
+        int id = nextId.getAndIncrement();
+        if (id >= CAPACITY) {
+            System.out.println("Vehicle state table full, " + name + " will not be tracked");
+            return -1;
+        }
+        names.set(id, name);
+        return id;
+    }
+    
+    public static void update(int id, int x, int y, int flags) {
+        if (id < 0) {
+            return;
+        }
+        slots.set(id, PRESENT_BIT | ((flags & FLAGS_MASK) << FLAGS_SHIFT)
+            | ((y & COORD_MASK) << Y_SHIFT) | (x & COORD_MASK));
+    }
+    
+    public static void remove(int id) {
+        if (id < 0) {
+            return;
+        }
+        slots.set(id, 0L);
+    }
+    
+    /**
+     * Upper bound (exclusive) of ids handed out so far.
+     */
+    public static int size() {
+        return Math.min(nextId.get(), CAPACITY);
+    }
+    
+    public static long getRaw(int id) {
+        return slots.get(id);
+    }
+    
+    public static String getName(int id) {
+        return names.get(id);
+    }
+    
+    public static boolean isPresent(long raw) {
+        return (raw & PRESENT_BIT) != 0;
+    }
+    
+    public static int decodeX(long raw) {
+        return (int) (raw & COORD_MASK);
+    }
+    
+    public static int decodeY(long raw) {
+        return (int) ((raw >>> Y_SHIFT) & COORD_MASK);
+    }
+    
+    public static int decodeFlags(long raw) {
+        return (int) ((raw >>> FLAGS_SHIFT) & FLAGS_MASK);
+    }
+}